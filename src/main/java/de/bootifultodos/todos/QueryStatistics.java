@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+/**
+ * Number of JDBC statements, rows fetched and time spent executing statements.
+ * Instances are immutable snapshots, the running totals are kept per thread
+ * and are updated by the {@link QueryStatisticsListener}. A scope like a
+ * request or a repository call takes a snapshot before and computes the
+ * difference afterwards via {@link #since(QueryStatistics)}.
+ */
+@Getter
+public final class QueryStatistics {
+
+	private static final ThreadLocal<Totals> TOTALS = ThreadLocal.withInitial(Totals::new);
+
+	/** Number of executed statements, each query of a batch counts. */
+	private final long statements;
+
+	/** Number of rows read from result sets. */
+	private final long rows;
+
+	/** Time spent executing statements in nanoseconds. */
+	private final long nanos;
+
+	private QueryStatistics(final long statements, final long rows, final long nanos) {
+		this.statements = statements;
+		this.rows = rows;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return The totals of the current thread
+	 */
+	public static QueryStatistics current() {
+		final Totals totals = TOTALS.get();
+		return new QueryStatistics(totals.statements, totals.rows, totals.nanos);
+	}
+
+	/**
+	 * @param start A snapshot taken earlier on the same thread
+	 * @return Everything that has been executed after {@code start}
+	 */
+	public QueryStatistics since(final QueryStatistics start) {
+		return new QueryStatistics(
+			this.statements - start.statements,
+			this.rows - start.rows,
+			this.nanos - start.nanos
+		);
+	}
+
+	/**
+	 * @return Time spent executing statements in milliseconds
+	 */
+	public long getMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.nanos);
+	}
+
+	/**
+	 * Records this snapshot as {@code <prefix>.statements}, {@code <prefix>.rows}
+	 * and {@code <prefix>.time}.
+	 *
+	 * @param meterRegistry The registry to record to
+	 * @param prefix Prefix of the meter names
+	 * @param tags Tags describing the scope of this snapshot
+	 */
+	void record(final MeterRegistry meterRegistry, final String prefix, final Tags tags) {
+		DistributionSummary.builder(prefix + ".statements")
+			.description("Number of executed JDBC statements")
+			.tags(tags)
+			.register(meterRegistry)
+			.record(this.statements);
+		DistributionSummary.builder(prefix + ".rows")
+			.description("Number of rows fetched via JDBC")
+			.tags(tags)
+			.register(meterRegistry)
+			.record(this.rows);
+		Timer.builder(prefix + ".time")
+			.description("Time spent executing JDBC statements")
+			.tags(tags)
+			.register(meterRegistry)
+			.record(this.nanos, TimeUnit.NANOSECONDS);
+	}
+
+	static void addStatements(final int statements, final long nanos) {
+		final Totals totals = TOTALS.get();
+		totals.statements += statements;
+		totals.nanos += nanos;
+	}
+
+	static void addRow() {
+		TOTALS.get().rows++;
+	}
+
+	/**
+	 * Running totals of a single thread.
+	 */
+	private static final class Totals {
+
+		private long statements;
+
+		private long rows;
+
+		private long nanos;
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Wraps all data sources with a proxy counting statements, rows and JDBC time
+ * and accounts them per HTTP request and per repository method. Set
+ * {@code todos.query-statistics.expose-headers} to also get them as response
+ * headers.
+ */
+@Configuration
+public class QueryStatisticsConfig {
+
+	@Bean
+	public static BeanPostProcessor queryStatisticsDataSourcePostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+				if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+					return bean;
+				}
+				final QueryStatisticsListener listener = new QueryStatisticsListener();
+				return ProxyDataSourceBuilder
+					.create(beanName, (DataSource) bean)
+					.listener(listener)
+					.methodListener(listener)
+					.proxyResultSet()
+					.build();
+			}
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor queryStatisticsRepositoryPostProcessor(final ObjectProvider<MeterRegistry> meterRegistry) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport) {
+					((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory
+						-> factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation)
+							-> proxyFactory.addAdvice(0, new QueryStatisticsRepositoryInterceptor(
+								meterRegistry.getObject(), repositoryInformation.getRepositoryInterface()
+							))
+						)
+					);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public FilterRegistrationBean<QueryStatisticsFilter> queryStatisticsFilter(
+		final MeterRegistry meterRegistry,
+		@Value("${todos.query-statistics.expose-headers:false}") final boolean exposeHeaders
+	) {
+		final FilterRegistrationBean<QueryStatisticsFilter> registration
+			= new FilterRegistrationBean<>(new QueryStatisticsFilter(meterRegistry, exposeHeaders));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+}
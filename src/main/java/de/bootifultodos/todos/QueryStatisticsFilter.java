@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Optional;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Accounts the JDBC statements of each HTTP request. The statistics are
+ * stored as request attribute {@link #STATISTICS_ATTRIBUTE} and recorded as
+ * {@code jdbc.request.*} metrics. If enabled, they are also exposed as
+ * response headers. Those headers can only contain what has been executed
+ * until the response is committed.
+ */
+@RequiredArgsConstructor
+final class QueryStatisticsFilter extends OncePerRequestFilter {
+
+	static final String STATISTICS_ATTRIBUTE = QueryStatistics.class.getName();
+
+	static final String STATEMENTS_HEADER = "X-Query-Statements";
+
+	static final String ROWS_HEADER = "X-Query-Rows";
+
+	static final String TIME_HEADER = "X-Query-Time";
+
+	private final MeterRegistry meterRegistry;
+
+	private final boolean exposeHeaders;
+
+	@Override
+	protected void doFilterInternal(
+		final HttpServletRequest request,
+		final HttpServletResponse response,
+		final FilterChain filterChain
+	) throws ServletException, IOException {
+		final QueryStatistics start = QueryStatistics.current();
+		final StatisticsHeadersResponse wrappedResponse = this.exposeHeaders
+			? new StatisticsHeadersResponse(response, start)
+			: null;
+		try {
+			filterChain.doFilter(request, wrappedResponse == null ? response : wrappedResponse);
+		} finally {
+			if (wrappedResponse != null) {
+				wrappedResponse.addStatisticsHeaders();
+			}
+			final QueryStatistics statistics = QueryStatistics.current().since(start);
+			request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+			statistics.record(this.meterRegistry, "jdbc.request", Tags.of(
+				"method", request.getMethod(),
+				"uri", Optional.ofNullable(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+					.map(Object::toString)
+					.orElse("UNKNOWN")
+			));
+		}
+	}
+
+	/**
+	 * Adds the statistics headers right before the response gets committed.
+	 */
+	static final class StatisticsHeadersResponse extends HttpServletResponseWrapper {
+
+		private final QueryStatistics start;
+
+		private boolean headersAdded;
+
+		StatisticsHeadersResponse(final HttpServletResponse response, final QueryStatistics start) {
+			super(response);
+			this.start = start;
+		}
+
+		void addStatisticsHeaders() {
+			if (this.headersAdded || isCommitted()) {
+				return;
+			}
+			this.headersAdded = true;
+			final QueryStatistics statistics = QueryStatistics.current().since(this.start);
+			setHeader(STATEMENTS_HEADER, Long.toString(statistics.getStatements()));
+			setHeader(ROWS_HEADER, Long.toString(statistics.getRows()));
+			setHeader(TIME_HEADER, Long.toString(statistics.getMillis()));
+		}
+
+		@Override
+		public void sendError(final int sc, final String msg) throws IOException {
+			addStatisticsHeaders();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendError(final int sc) throws IOException {
+			addStatisticsHeaders();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendRedirect(final String location) throws IOException {
+			addStatisticsHeaders();
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			addStatisticsHeaders();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			addStatisticsHeaders();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			addStatisticsHeaders();
+			super.flushBuffer();
+		}
+	}
+}
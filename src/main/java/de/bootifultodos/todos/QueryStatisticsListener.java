@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import java.sql.ResultSet;
+import java.util.List;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Adds all statements executed through a proxied data source and all rows
+ * read from their result sets to the {@link QueryStatistics} of the current
+ * thread.
+ */
+final class QueryStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+	private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+	@Override
+	public void beforeQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+		this.startedAt.set(System.nanoTime());
+	}
+
+	@Override
+	public void afterQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+		final int statements = execInfo.isBatch() ? execInfo.getBatchSize() : queryInfoList.size();
+		QueryStatistics.addStatements(statements, System.nanoTime() - this.startedAt.get());
+		this.startedAt.remove();
+	}
+
+	@Override
+	public void beforeMethod(final MethodExecutionContext executionContext) {
+	}
+
+	@Override
+	public void afterMethod(final MethodExecutionContext executionContext) {
+		if (executionContext.getTarget() instanceof ResultSet
+			&& "next".equals(executionContext.getMethod().getName())
+			&& Boolean.TRUE.equals(executionContext.getResult())) {
+			QueryStatistics.addRow();
+		}
+	}
+}
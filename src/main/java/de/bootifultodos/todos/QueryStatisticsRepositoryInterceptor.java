@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Records the JDBC statements of each repository method as
+ * {@code jdbc.repository.*} metrics. Must be the outermost advice of a
+ * repository so that statements flushed on commit are attributed to the
+ * method that opened the transaction.
+ */
+@RequiredArgsConstructor
+final class QueryStatisticsRepositoryInterceptor implements MethodInterceptor {
+
+	private final MeterRegistry meterRegistry;
+
+	private final Class<?> repositoryInterface;
+
+	@Override
+	public Object invoke(final MethodInvocation invocation) throws Throwable {
+		final QueryStatistics start = QueryStatistics.current();
+		try {
+			return invocation.proceed();
+		} finally {
+			QueryStatistics.current().since(start).record(this.meterRegistry, "jdbc.repository", Tags.of(
+				"repository", this.repositoryInterface.getSimpleName(),
+				"method", invocation.getMethod().getName()
+			));
+		}
+	}
+}
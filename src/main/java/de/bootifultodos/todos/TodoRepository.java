@@ -36,6 +36,7 @@ public interface TodoRepository
 	Todo save(Todo entity);
 
 	@PostAuthorize("(returnObject.orElse(null)?.userId ?: authentication.name) == authentication.name")
+	@Query("Select e from #{#entityName} e where e.id = ?1")
 	Optional<Todo> findOne(Long id);
 
 	@Query("Select e from #{#entityName} e where e.userId = ?#{authentication.name}")
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Result matchers asserting the JDBC statements of a request as accounted by
+ * the {@link QueryStatisticsFilter}, for example
+ * {@code .andExpect(QueryBudget.statements(2))}.
+ */
+public final class QueryBudget {
+
+	private QueryBudget() {
+	}
+
+	public static ResultMatcher statements(final long expected) {
+		return result -> assertThat(statisticsOf(result).getStatements())
+			.as("Number of JDBC statements")
+			.isEqualTo(expected);
+	}
+
+	public static ResultMatcher maxStatements(final long max) {
+		return result -> assertThat(statisticsOf(result).getStatements())
+			.as("Number of JDBC statements")
+			.isLessThanOrEqualTo(max);
+	}
+
+	public static ResultMatcher maxRows(final long max) {
+		return result -> assertThat(statisticsOf(result).getRows())
+			.as("Number of rows fetched")
+			.isLessThanOrEqualTo(max);
+	}
+
+	public static QueryStatistics statisticsOf(final MvcResult result) {
+		final Object statistics = result.getRequest().getAttribute(QueryStatisticsFilter.STATISTICS_ATTRIBUTE);
+		assertThat(statistics)
+			.as("Query statistics, is the QueryStatisticsFilter registered?")
+			.isInstanceOf(QueryStatistics.class);
+		return (QueryStatistics) statistics;
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 michael-simons.eu.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.bootifultodos.todos;
+
+import static de.bootifultodos.todos.QueryBudget.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Enforces the query budgets of the {@link WebEndpoint} against the real
+ * database.
+ */
+@SpringBootTest(properties = {
+	"eureka.client.enabled = false",
+	"todos.query-statistics.expose-headers = true"
+})
+@AutoConfigureMockMvc
+public class WebEndpointQueryBudgetTest {
+
+	@Autowired
+	private TodoRepository todoRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void emptyFormShouldNotQuery() throws Exception {
+		this.mvc
+			.perform(get("/todos/new").with(user("test")))
+			.andExpect(status().isOk())
+			.andExpect(statements(0))
+			.andExpect(header().string(QueryStatisticsFilter.STATEMENTS_HEADER, "0"));
+	}
+
+	@Test
+	@WithMockUser("test")
+	void filledFormShouldSelectOnce() throws Exception {
+		final Long id = this.todoRepository.save(new Todo("test")).getId();
+
+		this.mvc
+			.perform(get("/todos/" + id).with(user("test")))
+			.andExpect(status().isOk())
+			.andExpect(statements(1))
+			.andExpect(maxRows(1))
+			.andExpect(header().string(QueryStatisticsFilter.STATEMENTS_HEADER, "1"))
+			.andExpect(header().string(QueryStatisticsFilter.ROWS_HEADER, "1"))
+			.andExpect(header().exists(QueryStatisticsFilter.TIME_HEADER));
+	}
+
+	@Test
+	void createShouldInsertOnce() throws Exception {
+		this.mvc
+			.perform(post("/todos")
+				.with(user("test")).with(csrf())
+				.param("aufgabe", "test")
+				.param("status", "OFFEN"))
+			.andExpect(status().isFound())
+			.andExpect(statements(1))
+			.andExpect(header().string(QueryStatisticsFilter.STATEMENTS_HEADER, "1"));
+	}
+
+	@Test
+	@WithMockUser("test")
+	void updateShouldSelectAndUpdate() throws Exception {
+		final Long id = this.todoRepository.save(new Todo("test")).getId();
+
+		this.mvc
+			.perform(put("/todos/" + id)
+				.with(user("test")).with(csrf())
+				.param("aufgabe", "test")
+				.param("status", "ERLEDIGT"))
+			.andExpect(status().isFound())
+			.andExpect(statements(2))
+			.andExpect(header().string(QueryStatisticsFilter.STATEMENTS_HEADER, "2"));
+
+		assertThat(this.meterRegistry.get("jdbc.request.statements")
+			.tags("method", "PUT", "uri", "/todos/{id}")
+			.summary().max()).isEqualTo(2.0);
+	}
+
+	@Test
+	void updateOfUnknownTodoShouldOnlySelect() throws Exception {
+		this.mvc
+			.perform(put("/todos/4711")
+				.with(user("test")).with(csrf())
+				.param("aufgabe", "test")
+				.param("status", "ERLEDIGT"))
+			.andExpect(status().isNotFound())
+			.andExpect(maxStatements(1))
+			.andExpect(header().string(QueryStatisticsFilter.STATEMENTS_HEADER, "1"));
+	}
+
+	@Test
+	@WithMockUser("test")
+	void repositoryMethodsShouldBeAccounted() {
+		final Long id = this.todoRepository.save(new Todo("test")).getId();
+		this.todoRepository.findOne(id);
+
+		assertThat(this.meterRegistry.get("jdbc.repository.statements")
+			.tags("repository", "TodoRepository", "method", "findOne")
+			.summary().max()).isEqualTo(1.0);
+		assertThat(this.meterRegistry.get("jdbc.repository.rows")
+			.tags("repository", "TodoRepository", "method", "findOne")
+			.summary().max()).isEqualTo(1.0);
+		assertThat(this.meterRegistry.get("jdbc.repository.statements")
+			.tags("repository", "TodoRepository", "method", "save")
+			.summary().max()).isEqualTo(1.0);
+	}
+}